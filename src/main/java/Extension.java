@@ -5,15 +5,37 @@ import burp.api.montoya.http.handler.HttpRequestToBeSent;
 import burp.api.montoya.http.handler.HttpResponseReceived;
 import burp.api.montoya.http.handler.RequestToBeSentAction;
 import burp.api.montoya.http.handler.ResponseReceivedAction;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.sessions.ActionResult;
+import burp.api.montoya.http.sessions.SessionHandlingAction;
+import burp.api.montoya.http.sessions.SessionHandlingActionData;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.responses.HttpResponse;
 import burp.api.montoya.core.ToolType;
 import burp.api.montoya.http.message.params.HttpParameter;
 import burp.api.montoya.http.message.params.HttpParameterType;
+import burp.api.montoya.http.message.Cookie;
+import burp.api.montoya.http.message.HttpHeader;
+import burp.api.montoya.http.message.ContentType;
+import burp.api.montoya.core.ByteArray;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -29,8 +51,11 @@ import java.util.regex.Pattern;
  * Uses Montoya API (Burp Suite 2024+)
  * 
  * NEW FEATURE: Auto-fetch token from source when target request is detected
+ * 
+ * Also registered as a session handling action, so Burp's session handling rules
+ * can decide scope and tools and call into the binder only for matching requests.
  */
-public class Extension implements BurpExtension, HttpHandler {
+public class Extension implements BurpExtension, HttpHandler, SessionHandlingAction {
     
     private MontoyaApi montoyaApi;
     
@@ -52,13 +77,60 @@ public class Extension implements BurpExtension, HttpHandler {
     private HttpRequest sourceRequestTemplate = null;  // NEW: Template source request for auto-fetch
     
     // Token storage
-    private String currentToken = null;
+    private volatile String currentToken = null;  // Written by fetch threads, read by handlers and the EDT
     private Map<String, String> tabTokens = new HashMap<>();
     private boolean autoFetchEnabled = true;  // NEW: Auto-fetch feature flag
-    private long lastTokenFetchTime = 0;      // NEW: Track when token was fetched
+    private volatile long lastTokenFetchTime = 0;  // NEW: Track when token was fetched
     private static final long TOKEN_REUSE_TIMEOUT = 5000; // 5 seconds - reuse token within this window
     private HttpRequest lastSourceRequest = null;  // NEW: Store last request to source for auto-fetch
     
+    // Token path prefixes that read response headers instead of the body
+    private static final String HEADER_PATH_PREFIX = "header:";
+    private static final String COOKIE_PATH_PREFIX = "cookie:";
+    private static final String LOCATION_PATH_PREFIX = "location:";
+    
+    // Multi-step source chain (e.g. login -> MFA/OTP exchange -> audience token exchange)
+    private final java.util.List<SourceStep> authChainSteps = new java.util.concurrent.CopyOnWriteArrayList<>();
+    private final Object authChainLock = new Object();         // Guards step state, never held across I/O
+    private final Object authChainRefreshLock = new Object();  // Serializes chain replays, never taken by the UI
+    private static final int MIN_CAPTURED_VALUE_LENGTH = 8;    // Shorter captured values are only bound via {{name}}
+    
+    // Source endpoint protection: fail fast instead of stalling every target request
+    private static final long SOURCE_FETCH_WAIT_MS = 2000;
+    private final SourceCircuitBreaker sourceBreaker = new SourceCircuitBreaker();
+    private final Object sourceFetchLock = new Object();  // Guards starting a fetch, never held across I/O
+    private SourceFetch inFlightFetch = null;
+    
+    // Precomputed injection values, rebuilt per token / configuration change
+    private volatile InjectionPlan injectionPlan = null;
+    private volatile int injectionConfigVersion = 0;
+    
+    // Computed placeholders ({timestamp}, {nonce}, {hmac:...}) resolved per request after injection
+    private static final Pattern DYNAMIC_PLACEHOLDER =
+        Pattern.compile("\\{(timestamp|timestamp_ms|amz_date|nonce|body_sha256|(hmac|hmac64):([a-z_,]+))\\}");
+    private static final SecureRandom NONCE_RANDOM = new SecureRandom();
+    private volatile String signingSecret = "";   // Blank = sign with the current token
+    private volatile boolean deriveDailySigningKey = false;
+    private volatile boolean resolveOtherHeaderPlaceholders = true;  // Off: only the injected header is resolved
+    private final SigningKeyCache signingKeyCache = new SigningKeyCache();
+    
+    // Optional token store shared with other Burp instances on this host
+    private static final String DEFAULT_SHARED_STORE_PATH =
+        Paths.get(System.getProperty("user.home"), ".tokenbinder", "shared-token.bin").toString();
+    private static final long SHARED_LEASE_WAIT_MS = 5000;
+    private volatile SharedTokenStore sharedTokenStore = null;
+    private volatile long sharedTokenMaxAgeMs = 30000;
+    
+    // Dashboard state
+    private final RefreshStats sourceRefreshStats = new RefreshStats();
+    private String expiryToken = null;  // Token the cached expiry belongs to
+    private long expiryMillis = 0;
+    
+    // Session handling rule integration
+    private volatile boolean sessionRulesOnly = false;  // Skip injection in the HTTP handler
+    private final Object sessionRefreshLock = new Object();
+    private volatile long lastSourceCheckTime = 0;  // When a session rule last asked the source
+    
     // UI Components
     private TokenBinderConfigPanel configPanel;
     
@@ -66,7 +138,617 @@ public class Extension implements BurpExtension, HttpHandler {
         HEADER,
         QUERY_PARAM,
         BODY_JSON,
-        BODY_FORM
+        BODY_FORM,
+        COOKIE
+    }
+    
+    /**
+     * One step of a multi-step source chain.
+     * The value extracted from a step feeds the requests of the steps after it,
+     * and is cached for its own TTL so a refresh only replays the steps that expired.
+     */
+    private static class SourceStep {
+        final String name;
+        final String urlPattern;
+        final String extractPath;
+        final long ttlMillis;
+        
+        volatile HttpRequest template = null;                  // Request captured from Repeater
+        volatile Map<String, String> capturedInputs = Map.of(); // Earlier step values present when template was captured
+        volatile String cachedValue = null;
+        volatile long fetchedAt = 0;
+        final RefreshStats stats = new RefreshStats();
+        
+        SourceStep(String name, String urlPattern, String extractPath, long ttlMillis) {
+            this.name = name;
+            this.urlPattern = urlPattern;
+            this.extractPath = extractPath;
+            this.ttlMillis = ttlMillis;
+        }
+        
+        boolean isValid(long now) {
+            return cachedValue != null && ttlMillis > 0 && now - fetchedAt < ttlMillis;
+        }
+        
+        boolean sameDefinition(SourceStep other) {
+            return name.equals(other.name) && urlPattern.equals(other.urlPattern)
+                && extractPath.equals(other.extractPath) && ttlMillis == other.ttlMillis;
+        }
+        
+        void store(String value, long now) {
+            cachedValue = value;
+            fetchedAt = now;
+        }
+        
+        void invalidate() {
+            cachedValue = null;
+            fetchedAt = 0;
+        }
+    }
+    
+    /**
+     * Refresh counters shown on the dashboard
+     */
+    private static final class RefreshStats {
+        private long refreshCount = 0;
+        private long lastLatencyMs = -1;
+        private int consecutiveFailures = 0;
+        
+        /**
+         * @param latencyMs Round-trip time, or -1 if the refresh failed before a response
+         */
+        synchronized void record(boolean success, long latencyMs) {
+            if (latencyMs >= 0) {
+                lastLatencyMs = latencyMs;
+            }
+            if (success) {
+                refreshCount++;
+                consecutiveFailures = 0;
+            } else {
+                consecutiveFailures++;
+            }
+        }
+        
+        synchronized long getRefreshCount() {
+            return refreshCount;
+        }
+        
+        synchronized long getLastLatencyMs() {
+            return lastLatencyMs;
+        }
+        
+        synchronized int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+    }
+    
+    /**
+     * Immutable dashboard row, taken from live state on each UI frame
+     */
+    private static final class BindingSnapshot {
+        final String binding;
+        final String value;        // Masked
+        final long fetchedAt;      // 0 = never
+        final long expiresAt;      // 0 = unknown
+        final long lastLatencyMs;  // -1 = none yet
+        final long refreshCount;
+        final String status;
+        final boolean failing;
+        
+        BindingSnapshot(String binding, String value, long fetchedAt, long expiresAt,
+                        long lastLatencyMs, long refreshCount, String status, boolean failing) {
+            this.binding = binding;
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+            this.lastLatencyMs = lastLatencyMs;
+            this.refreshCount = refreshCount;
+            this.status = status;
+            this.failing = failing;
+        }
+    }
+    
+    /**
+     * Everything needed to inject one token version, computed once:
+     * the formatted value and its header, query, JSON, form and cookie variants.
+     */
+    private static final class InjectionPlan {
+        final String token;
+        final int configVersion;
+        final TokenInjectionLocation location;
+        final String key;
+        final String formattedValue;
+        final HttpHeader header;
+        final HttpParameter queryParameter;
+        final String jsonField;   // "key":"value" with quotes escaped
+        final String formField;   // key=url-encoded value
+        final String cookiePair;  // key=value
+        final boolean dynamic;    // Format contains computed placeholders to resolve per request
+        
+        InjectionPlan(String token, int configVersion, TokenInjectionLocation location, String key, String format) {
+            this.token = token;
+            this.configVersion = configVersion;
+            this.location = location;
+            this.key = key;
+            this.formattedValue = format.replace("{token}", token);
+            this.dynamic = DYNAMIC_PLACEHOLDER.matcher(format).find();
+            
+            HttpHeader header = null;
+            HttpParameter queryParameter = null;
+            String jsonField = null;
+            String formField = null;
+            String cookiePair = null;
+            switch (location) {
+                case HEADER:
+                    header = HttpHeader.httpHeader(key, formattedValue);
+                    break;
+                case QUERY_PARAM:
+                    queryParameter = HttpParameter.parameter(key, formattedValue, HttpParameterType.URL);
+                    break;
+                case BODY_JSON:
+                    jsonField = "\"" + key + "\":\"" + formattedValue.replace("\"", "\\\"") + "\"";
+                    break;
+                case BODY_FORM:
+                    formField = key + "=" + java.net.URLEncoder.encode(formattedValue, StandardCharsets.UTF_8);
+                    break;
+                case COOKIE:
+                    cookiePair = key + "=" + formattedValue;
+                    break;
+            }
+            this.header = header;
+            this.queryParameter = queryParameter;
+            this.jsonField = jsonField;
+            this.formField = formField;
+            this.cookiePair = cookiePair;
+        }
+    }
+    
+    /**
+     * Per-request values for computed placeholders.
+     * Timestamp and nonce are fixed per request so every placeholder in it agrees,
+     * and the body hash is computed at most once.
+     */
+    private static final class RequestSigningContext {
+        final HttpRequest request;
+        final String token;
+        final long timestampMillis = System.currentTimeMillis();
+        private String nonce = null;
+        private String bodySha256 = null;
+        private static final int BODY_HASH_CHUNK = 64 * 1024;
+        
+        RequestSigningContext(HttpRequest request, String token) {
+            this.request = request;
+            this.token = token;
+        }
+        
+        String nonce() {
+            if (nonce == null) {
+                byte[] bytes = new byte[16];
+                NONCE_RANDOM.nextBytes(bytes);
+                nonce = java.util.HexFormat.of().formatHex(bytes);
+            }
+            return nonce;
+        }
+        
+        String amzDate() {
+            return java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+                .withZone(java.time.ZoneOffset.UTC)
+                .format(java.time.Instant.ofEpochMilli(timestampMillis));
+        }
+        
+        String bodySha256() throws GeneralSecurityException {
+            if (bodySha256 == null) {
+                bodySha256 = java.util.HexFormat.of().formatHex(sha256(request.body()));
+            }
+            return bodySha256;
+        }
+        
+        /**
+         * Hash the body straight from the request bytes in fixed-size chunks,
+         * without decoding it to a String or copying it whole
+         */
+        private static byte[] sha256(ByteArray body) throws GeneralSecurityException {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            int length = body.length();
+            for (int offset = 0; offset < length; offset += BODY_HASH_CHUNK) {
+                int end = Math.min(length, offset + BODY_HASH_CHUNK);
+                digest.update(body.subArray(offset, end).getBytes());
+            }
+            return digest.digest();
+        }
+        
+        /**
+         * Canonical string for {hmac:fields}: the listed fields joined by newlines
+         */
+        String canonicalString(String fields) throws GeneralSecurityException {
+            StringBuilder canonical = new StringBuilder();
+            for (String field : fields.split(",")) {
+                if (canonical.length() > 0) {
+                    canonical.append('\n');
+                }
+                switch (field) {
+                    case "method":
+                        canonical.append(request.method());
+                        break;
+                    case "path":
+                        canonical.append(request.path());
+                        break;
+                    case "path_only":
+                        canonical.append(request.pathWithoutQuery());
+                        break;
+                    case "host":
+                        canonical.append(request.httpService().host());
+                        break;
+                    case "timestamp":
+                        canonical.append(timestampMillis / 1000);
+                        break;
+                    case "timestamp_ms":
+                        canonical.append(timestampMillis);
+                        break;
+                    case "amz_date":
+                        canonical.append(amzDate());
+                        break;
+                    case "nonce":
+                        canonical.append(nonce());
+                        break;
+                    case "body_sha256":
+                        canonical.append(bodySha256());
+                        break;
+                    case "token":
+                        canonical.append(token);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown signature field: " + field);
+                }
+            }
+            return canonical.toString();
+        }
+    }
+    
+    /**
+     * Caches the initialised HMAC for the current signing secret.
+     * With daily derivation the key is HMAC(secret, yyyyMMdd) in UTC, SigV4 style,
+     * so it is derived once per secret (or token) and day rather than per request.
+     */
+    private static final class SigningKeyCache {
+        private static final String ALGORITHM = "HmacSHA256";
+        
+        private String secret = null;
+        private String scope = null;
+        private SecretKeySpec keySpec = null;  // Derived key, always cached
+        private Mac prototype = null;          // Initialised Mac to clone, null if the provider can't clone
+        
+        synchronized Mac macFor(String secret, boolean daily, long timestampMillis) throws GeneralSecurityException {
+            String scope = daily
+                ? java.time.format.DateTimeFormatter.BASIC_ISO_DATE.withZone(java.time.ZoneOffset.UTC)
+                    .format(java.time.Instant.ofEpochMilli(timestampMillis))
+                : null;
+            if (keySpec == null || !secret.equals(this.secret) || !java.util.Objects.equals(scope, this.scope)) {
+                byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+                if (scope != null) {
+                    Mac derive = Mac.getInstance(ALGORITHM);
+                    derive.init(new SecretKeySpec(key, ALGORITHM));
+                    key = derive.doFinal(scope.getBytes(StandardCharsets.UTF_8));
+                }
+                this.keySpec = new SecretKeySpec(key, ALGORITHM);
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                this.prototype = mac;
+                this.secret = secret;
+                this.scope = scope;
+            }
+            if (prototype != null) {
+                try {
+                    return (Mac) prototype.clone();
+                } catch (CloneNotSupportedException e) {
+                    // Provider without clone support: init from the cached key from now on
+                    prototype = null;
+                }
+            }
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        }
+    }
+    
+    /**
+     * A running source fetch that target requests wait on together
+     */
+    private static final class SourceFetch {
+        final long deadline;
+        final java.util.concurrent.atomic.AtomicBoolean timedOut = new java.util.concurrent.atomic.AtomicBoolean(false);
+        Thread thread;
+        
+        SourceFetch(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+    
+    /**
+     * Outcome of a source fetch, as seen by the circuit breaker
+     */
+    private enum FetchResult {
+        REFRESHED,       // Source answered with a token
+        CACHED,          // Cached token still valid, source not called
+        FAILED,          // Source was called and failed
+        NOT_CONFIGURED   // Nothing captured to replay yet, source not called
+    }
+    
+    /**
+     * Circuit breaker around the source fetch.
+     * Opens after N consecutive failures, then lets a single probe through after an
+     * exponential backoff with jitter. A successful probe closes it again.
+     */
+    private static class SourceCircuitBreaker {
+        private enum State { CLOSED, OPEN, HALF_OPEN }
+        
+        private static final long BASE_BACKOFF_MS = 1000;
+        private static final long MAX_BACKOFF_MS = 60000;
+        
+        private volatile int failureThreshold = 3;
+        private State state = State.CLOSED;
+        private int consecutiveFailures = 0;
+        private int consecutiveOpens = 0;  // Drives the exponential backoff
+        private long nextProbeAt = 0;
+        
+        synchronized boolean allowRequest(long now) {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now >= nextProbeAt) {
+                        state = State.HALF_OPEN;  // Let exactly one probe through
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;  // Probe already in flight
+            }
+        }
+        
+        /**
+         * @return true if this success closed an open circuit
+         */
+        synchronized boolean recordSuccess() {
+            boolean recovered = state != State.CLOSED;
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            consecutiveOpens = 0;
+            nextProbeAt = 0;
+            return recovered;
+        }
+        
+        /**
+         * @return true if this failure opened the circuit
+         */
+        synchronized boolean recordFailure(long now) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                consecutiveOpens++;
+                long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(consecutiveOpens - 1, 16));
+                // Jitter between half and full backoff so parallel instances don't probe in lockstep
+                long jittered = backoff / 2 + java.util.concurrent.ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                nextProbeAt = now + jittered;
+                state = State.OPEN;
+                return true;
+            }
+            return false;
+        }
+        
+        /**
+         * Undo allowRequest when the source was never called, so the next request can probe
+         */
+        synchronized void cancelProbe() {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+                nextProbeAt = 0;
+            }
+        }
+        
+        synchronized void reset() {
+            recordSuccess();
+        }
+        
+        void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = Math.max(1, failureThreshold);
+        }
+        
+        int getFailureThreshold() {
+            return failureThreshold;
+        }
+        
+        synchronized boolean isClosed() {
+            return state == State.CLOSED;
+        }
+        
+        synchronized String describe(long now) {
+            switch (state) {
+                case OPEN:
+                    return "OPEN - next probe in " + Math.max(0, (nextProbeAt - now + 999) / 1000) + "s (" +
+                        consecutiveFailures + " consecutive failures)";
+                case HALF_OPEN:
+                    return "HALF-OPEN - probing source";
+                default:
+                    return "CLOSED (" + consecutiveFailures + "/" + failureThreshold + " failures)";
+            }
+        }
+    }
+    
+    /**
+     * Token store shared by Burp instances on the same host through a memory-mapped file.
+     * 
+     * Layout: magic | version | updatedAt | length | token bytes.
+     * Readers compare the version counter straight from the mapping and only take a
+     * shared file lock to copy the token when it changed. A separate one-byte lock
+     * region past the data acts as a refresh lease, so only one instance hits the
+     * source endpoint while the others wait and then pick up its token.
+     */
+    private static class SharedTokenStore {
+        private static final int MAGIC = 0x544B4231;  // "TKB1"
+        private static final int MAGIC_OFFSET = 0;
+        private static final int VERSION_OFFSET = 4;
+        private static final int UPDATED_AT_OFFSET = 12;
+        private static final int LENGTH_OFFSET = 20;
+        private static final int DATA_OFFSET = 24;
+        private static final int CAPACITY = 64 * 1024;
+        private static final long LEASE_POSITION = CAPACITY;  // Locked region only, never written
+        
+        static class Entry {
+            final String token;
+            final long version;
+            final long updatedAt;
+            
+            Entry(String token, long version, long updatedAt) {
+                this.token = token;
+                this.version = version;
+                this.updatedAt = updatedAt;
+            }
+        }
+        
+        private final Path path;
+        private final boolean posixPermissions;  // False where the filesystem can't restrict access
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // File locks are held per JVM, so threads in this instance queue on this first
+        private final java.util.concurrent.locks.ReentrantLock leaseLock = new java.util.concurrent.locks.ReentrantLock();
+        private Entry lastRead = null;
+        
+        SharedTokenStore(Path path) throws IOException {
+            this.path = path;
+            this.posixPermissions = path.getFileSystem().supportedFileAttributeViews().contains("posix");
+            // Tokens are credentials: create the directory and file private from the start,
+            // so there is no window in which another user can open them
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                if (posixPermissions) {
+                    Files.createDirectories(parent, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+                } else {
+                    Files.createDirectories(parent);
+                }
+            }
+            if (posixPermissions) {
+                java.util.Set<java.nio.file.attribute.PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rw-------");
+                this.channel = FileChannel.open(path,
+                    java.util.EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                    PosixFilePermissions.asFileAttribute(ownerOnly));
+                if (!Files.getPosixFilePermissions(path).equals(ownerOnly)) {
+                    // Existing file from elsewhere: tighten it, failing rather than sharing tokens with other users
+                    try {
+                        Files.setPosixFilePermissions(path, ownerOnly);
+                    } catch (IOException e) {
+                        channel.close();
+                        throw e;
+                    }
+                }
+            } else {
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, CAPACITY);
+        }
+        
+        Path getPath() {
+            return path;
+        }
+        
+        boolean hasPosixPermissions() {
+            return posixPermissions;
+        }
+        
+        /**
+         * Latest shared token, or null if nothing has been published yet.
+         * Lock-free when the version hasn't changed since the last read.
+         */
+        synchronized Entry read() throws IOException {
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                return null;
+            }
+            if (lastRead != null && buffer.getLong(VERSION_OFFSET) == lastRead.version) {
+                return lastRead;
+            }
+            try (FileLock lock = channel.lock(0, CAPACITY, true)) {
+                long version = buffer.getLong(VERSION_OFFSET);
+                long updatedAt = buffer.getLong(UPDATED_AT_OFFSET);
+                int length = buffer.getInt(LENGTH_OFFSET);
+                if (length <= 0 || length > CAPACITY - DATA_OFFSET) {
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(DATA_OFFSET, bytes);
+                lastRead = new Entry(new String(bytes, StandardCharsets.UTF_8), version, updatedAt);
+                return lastRead;
+            }
+        }
+        
+        synchronized void publish(String token, long updatedAt) throws IOException {
+            byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > CAPACITY - DATA_OFFSET) {
+                throw new IOException("Token too large for shared store (" + bytes.length + " bytes)");
+            }
+            try (FileLock lock = channel.lock(0, CAPACITY, false)) {
+                long version = buffer.getInt(MAGIC_OFFSET) == MAGIC ? buffer.getLong(VERSION_OFFSET) + 1 : 1;
+                buffer.put(DATA_OFFSET, bytes);
+                buffer.putInt(LENGTH_OFFSET, bytes.length);
+                buffer.putLong(UPDATED_AT_OFFSET, updatedAt);
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.putLong(VERSION_OFFSET, version);  // Written last: readers key off the version
+                buffer.force();
+                lastRead = new Entry(token, version, updatedAt);
+            }
+        }
+        
+        /**
+         * Take the cross-instance refresh lease, waiting up to maxWaitMs.
+         * Returns null if another instance kept it for longer than that.
+         */
+        FileLock acquireRefreshLease(long maxWaitMs) throws IOException {
+            long deadline = System.currentTimeMillis() + maxWaitMs;
+            boolean locked = false;
+            FileLock lease = null;
+            try {
+                locked = leaseLock.tryLock(maxWaitMs, java.util.concurrent.TimeUnit.MILLISECONDS);
+                if (!locked) {
+                    return null;
+                }
+                while (true) {
+                    try {
+                        lease = channel.tryLock(LEASE_POSITION, 1, false);
+                    } catch (java.nio.channels.OverlappingFileLockException e) {
+                        lease = null;  // Held through another channel in this JVM
+                    }
+                    if (lease != null) {
+                        return lease;
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        return null;
+                    }
+                    Thread.sleep(50);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                // Only a returned lease keeps the in-JVM lock, including when tryLock throws
+                if (locked && lease == null) {
+                    leaseLock.unlock();
+                }
+            }
+        }
+        
+        void releaseRefreshLease(FileLock lease) {
+            try {
+                lease.release();
+            } catch (IOException ignored) {
+            } finally {
+                leaseLock.unlock();
+            }
+        }
+        
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
     }
     
     @Override
@@ -78,10 +760,15 @@ public class Extension implements BurpExtension, HttpHandler {
         // Register HTTP handler
         montoyaApi.http().registerHttpHandler(this);
         
+        // Register session handling action (Settings -> Sessions -> rule action "Invoke a Burp extension")
+        montoyaApi.http().registerSessionHandlingAction(this);
+        
         // Create and register UI tab
         configPanel = new TokenBinderConfigPanel(this);
         montoyaApi.userInterface().registerSuiteTab("Token Binder", configPanel);
         
+        montoyaApi.extension().registerUnloadingHandler(this::extensionUnloaded);
+        
         montoyaApi.logging().logToOutput("Token Binder extension loaded successfully!");
         montoyaApi.logging().logToOutput("Configure source/target tabs and token path in the 'Token Binder' tab.");
         montoyaApi.logging().logToOutput("[Token Binder] Auto-fetch enabled: When you access a target request, the extension will automatically fetch a fresh token from the source!");
@@ -89,6 +776,11 @@ public class Extension implements BurpExtension, HttpHandler {
     
     @Override
     public RequestToBeSentAction handleHttpRequestToBeSent(HttpRequestToBeSent requestToBeSent) {
+        // Injection is left to session handling rules
+        if (sessionRulesOnly) {
+            return RequestToBeSentAction.continueWith(requestToBeSent);
+        }
+        
         // Only process requests from Repeater
         if (!requestToBeSent.toolSource().isFromTool(ToolType.REPEATER)) {
             return RequestToBeSentAction.continueWith(requestToBeSent);
@@ -102,23 +794,10 @@ public class Extension implements BurpExtension, HttpHandler {
             montoyaApi.logging().logToOutput("[Token Binder] Request from Repeater to: " + url);
             
             // In Tab ID mode: Always send source request first to get fresh token
-            if (sourceRequestTemplate != null && autoFetchEnabled) {
+            if (hasAutoFetchSource() && autoFetchEnabled) {
                 // Auto-fetch fresh token from source
-                montoyaApi.logging().logToOutput("[Token Binder] [TAB ID MODE] Auto-fetching fresh token from source...");
-                Thread fetchThread = new Thread(() -> autoFetchTokenFromSourceEndpoint());
-                fetchThread.setDaemon(true);
-                fetchThread.start();
-                
-                try {
-                    Thread.sleep(2000);  // Wait for token to be fetched
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                
-                if (currentToken != null) {
-                    montoyaApi.logging().logToOutput("[Token Binder] ✓ Fresh token obtained: " + maskToken(currentToken));
-                }
-            } else if (sourceRequestTemplate == null) {
+                refreshTokenFromSource("TAB ID MODE");
+            } else if (!hasAutoFetchSource()) {
                 montoyaApi.logging().logToOutput("[Token Binder] [TAB ID MODE] Source template not set. Send source request first to Tab " + sourceRepeaterTabId);
             }
             
@@ -151,21 +830,9 @@ public class Extension implements BurpExtension, HttpHandler {
         }
         
         // In pattern mode: if this is a target request, auto-fetch fresh token first
-        if (isTargetRequest && sourceRequestTemplate != null && autoFetchEnabled) {
-            montoyaApi.logging().logToOutput("[Token Binder] [PATTERN MODE] Target request detected. Auto-fetching fresh token...");
-            Thread fetchThread = new Thread(() -> autoFetchTokenFromSourceEndpoint());
-            fetchThread.setDaemon(true);
-            fetchThread.start();
-            
-            try {
-                Thread.sleep(2000);  // Wait for token to be fetched
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            
-            if (currentToken != null) {
-                montoyaApi.logging().logToOutput("[Token Binder] ✓ Fresh token obtained: " + maskToken(currentToken));
-            }
+        if (isTargetRequest && hasAutoFetchSource() && autoFetchEnabled) {
+            montoyaApi.logging().logToOutput("[Token Binder] [PATTERN MODE] Target request detected.");
+            refreshTokenFromSource("PATTERN MODE");
         }
         
         if (currentToken == null) {
@@ -203,6 +870,11 @@ public class Extension implements BurpExtension, HttpHandler {
             return ResponseReceivedAction.continueWith(responseReceived);
         }
         
+        // Auth chain steps are captured independently of the single source configuration
+        if (!authChainSteps.isEmpty() && captureAuthChainStep(responseReceived)) {
+            return ResponseReceivedAction.continueWith(responseReceived);
+        }
+        
         if (tokenPath == null || tokenPath.isEmpty()) {
             return ResponseReceivedAction.continueWith(responseReceived);
         }
@@ -227,33 +899,24 @@ public class Extension implements BurpExtension, HttpHandler {
         if (shouldExtract) {
             try {
                 // Try to extract token first
-                String body = responseReceived.bodyToString();
-                if (body != null && !body.isEmpty()) {
-                    String token = null;
-                    
-                    if (tokenPath.startsWith("$.")) {
-                        token = extractFromJson(body, tokenPath);
-                    } else {
-                        token = extractFromRegex(body, tokenPath);
-                    }
+                String token = extractValue(responseReceived, tokenPath);
+                
+                // Only capture as source request if we found a token
+                if (token != null && !token.isEmpty()) {
+                    lastSourceRequest = responseReceived.initiatingRequest();
+                    sourceRequestTemplate = responseReceived.initiatingRequest();  // NEW: Also save as template
+                    montoyaApi.logging().logToOutput("[Token Binder] ✓ Source request captured for auto-fetch: " + url);
+                    montoyaApi.logging().logToOutput("[Token Binder] [TAB ID MODE] Source request saved as template for auto-fetch");
                     
-                    // Only capture as source request if we found a token
-                    if (token != null && !token.isEmpty()) {
-                        lastSourceRequest = responseReceived.initiatingRequest();
-                        sourceRequestTemplate = responseReceived.initiatingRequest();  // NEW: Also save as template
-                        montoyaApi.logging().logToOutput("[Token Binder] ✓ Source request captured for auto-fetch: " + url);
-                        montoyaApi.logging().logToOutput("[Token Binder] [TAB ID MODE] Source request saved as template for auto-fetch");
-                        
-                        // Now extract the token properly
-                        extractToken(responseReceived);
-                    } else if (!useRepeaterTabIds) {
-                        // In pattern mode, still extract even if no token found
-                        lastSourceRequest = responseReceived.initiatingRequest();
-                        montoyaApi.logging().logToOutput("[Token Binder] Source request captured (token extraction may fail): " + url);
-                        extractToken(responseReceived);
-                    } else {
-                        montoyaApi.logging().logToOutput("[Token Binder] [TAB ID MODE] No token found in response from: " + url);
-                    }
+                    // Now extract the token properly
+                    extractToken(responseReceived);
+                } else if (!useRepeaterTabIds) {
+                    // In pattern mode, still extract even if no token found
+                    lastSourceRequest = responseReceived.initiatingRequest();
+                    montoyaApi.logging().logToOutput("[Token Binder] Source request captured (token extraction may fail): " + url);
+                    extractToken(responseReceived);
+                } else {
+                    montoyaApi.logging().logToOutput("[Token Binder] [TAB ID MODE] No token found in response from: " + url);
                 }
             } catch (Exception e) {
                 montoyaApi.logging().logToError("[Token Binder] Error extracting token: " + e.getMessage());
@@ -263,47 +926,384 @@ public class Extension implements BurpExtension, HttpHandler {
         return ResponseReceivedAction.continueWith(responseReceived);
     }
     
+    @Override
+    public String name() {
+        return "Token Binder: inject bound token";
+    }
+    
     /**
-     * Extract token from response body
+     * Session handling rule entry point.
+     * Burp has already applied the rule's scope and tool filters. Reuses the same token
+     * cache, auto-fetch path and injection plan as the HTTP handler.
      */
-    private void extractToken(HttpResponse response) {
+    @Override
+    public ActionResult performAction(SessionHandlingActionData actionData) {
+        HttpRequest request = actionData.request();
+        
+        // A macro run by the rule may already have logged in: take the token from its responses
+        boolean tokenFromMacro = false;
+        java.util.List<HttpRequestResponse> macroResults = actionData.macroRequestResponses();
+        if (tokenPath != null && !tokenPath.isEmpty() && macroResults != null) {
+            for (int i = macroResults.size() - 1; i >= 0 && !tokenFromMacro; i--) {
+                HttpResponse macroResponse = macroResults.get(i).response();
+                if (macroResponse != null) {
+                    tokenFromMacro = extractToken(macroResponse, false);
+                }
+            }
+        }
+        
+        if (!tokenFromMacro && hasAutoFetchSource() && autoFetchEnabled) {
+            // Rules can fire for every Scanner request, so reuse a token that is still valid
+            // instead of fetching per request, and let only one thread refresh at a time
+            synchronized (sessionRefreshLock) {
+                if (!hasReusableToken(System.currentTimeMillis())) {
+                    refreshTokenFromSource("SESSION RULE");
+                    lastSourceCheckTime = System.currentTimeMillis();
+                }
+            }
+        }
+        
+        if (currentToken == null) {
+            return ActionResult.actionResult(request);
+        }
+        return ActionResult.actionResult(injectToken(request));
+    }
+    
+    /**
+     * Whether a session rule can inject the current token without asking the source.
+     * Uses when the source was last checked rather than the token's fetch time, since
+     * chain and shared tokens keep their original (possibly old) timestamps.
+     */
+    private boolean hasReusableToken(long now) {
+        if (currentToken == null) {
+            return false;
+        }
+        SourceStep last = null;
+        for (SourceStep step : authChainSteps) {
+            last = step;
+        }
+        if (last != null && last.isValid(now)) {
+            return true;
+        }
+        return now - lastSourceCheckTime <= TOKEN_REUSE_TIMEOUT;
+    }
+    
+    /**
+     * Fetch a fresh token from the source before injecting into a target request.
+     * While the source circuit breaker is open this returns immediately, leaving the
+     * last good token (if any) in place instead of waiting on a failing endpoint.
+     */
+    private void refreshTokenFromSource(String mode) {
+        if (adoptSharedToken()) {
+            montoyaApi.logging().logToOutput("[Token Binder] [" + mode + "] Using shared token: " + maskToken(currentToken));
+            return;
+        }
+        
+        // Single flight: join a fetch that is already running instead of starting another
+        SourceFetch fetch;
+        boolean started = false;
+        synchronized (sourceFetchLock) {
+            fetch = inFlightFetch;
+            if (fetch == null || !fetch.thread.isAlive()) {
+                long now = System.currentTimeMillis();
+                if (!sourceBreaker.allowRequest(now)) {
+                    montoyaApi.logging().logToOutput("[Token Binder] [" + mode + "] Source endpoint circuit open (" +
+                        sourceBreaker.describe(now) + "), " +
+                        (currentToken != null ? "using last good token" : "skipping injection"));
+                    return;
+                }
+                fetch = new SourceFetch(now + SOURCE_FETCH_WAIT_MS);
+                SourceFetch current = fetch;
+                fetch.thread = new Thread(() -> runSourceFetch(current));
+                fetch.thread.setDaemon(true);
+                inFlightFetch = fetch;
+                fetch.thread.start();
+                started = true;
+            }
+        }
+        
+        montoyaApi.logging().logToOutput("[Token Binder] [" + mode + "] " +
+            (started ? "Auto-fetching fresh token from source..." : "Waiting for in-flight source fetch..."));
+        
+        // Every caller waits against the same deadline, so a hanging source costs the wait once
+        long remaining = fetch.deadline - System.currentTimeMillis();
+        if (remaining > 0) {
+            try {
+                fetch.thread.join(remaining);  // Wait for token to be fetched
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        if (fetch.thread.isAlive()) {
+            if (fetch.timedOut.compareAndSet(false, true)) {
+                // A hanging source counts as a failure now, not whenever sendRequest gives up
+                montoyaApi.logging().logToOutput("[Token Binder] Source fetch exceeded " + SOURCE_FETCH_WAIT_MS +
+                    " ms, continuing with current token");
+                sourceRefreshStats.record(false, -1);
+                recordSourceFetchResult(false);
+            }
+        } else if (currentToken != null) {
+            montoyaApi.logging().logToOutput("[Token Binder] ✓ Fresh token obtained: " + maskToken(currentToken));
+        }
+    }
+    
+    private void runSourceFetch(SourceFetch fetch) {
+        long started = System.currentTimeMillis();
+        FetchResult result = fetchTokenFromSource();
+        if (result == FetchResult.NOT_CONFIGURED || result == FetchResult.CACHED) {
+            sourceBreaker.cancelProbe();  // No request was sent, says nothing about the endpoint
+        } else if (result == FetchResult.REFRESHED) {
+            sourceRefreshStats.record(true, System.currentTimeMillis() - started);
+            recordSourceFetchResult(true);
+        } else if (!fetch.timedOut.get()) {
+            // A failure after the deadline was already counted when the wait timed out
+            sourceRefreshStats.record(false, System.currentTimeMillis() - started);
+            recordSourceFetchResult(false);
+        }
+    }
+    
+    /**
+     * Fetch from the source, coordinating with other instances through the shared store.
+     * Whoever holds the refresh lease fetches; the others wait for it and reuse its token.
+     */
+    private FetchResult fetchTokenFromSource() {
+        SharedTokenStore store = sharedTokenStore;
+        if (store == null) {
+            return autoFetchTokenFromSourceEndpoint();
+        }
+        
+        FileLock lease = null;
         try {
-            String body = response.bodyToString();
-            if (body == null || body.isEmpty()) {
-                montoyaApi.logging().logToOutput("[Token Binder] Response has empty body, cannot extract token");
-                return;
+            lease = store.acquireRefreshLease(SHARED_LEASE_WAIT_MS);
+            if (lease == null) {
+                montoyaApi.logging().logToOutput("[Token Binder] Shared refresh lease busy, fetching independently");
+            } else if (adoptSharedToken()) {
+                // Another instance refreshed while we were waiting for the lease
+                montoyaApi.logging().logToOutput("[Token Binder] ✓ Picked up token refreshed by another instance: " + maskToken(currentToken));
+                return FetchResult.CACHED;
             }
-            
+        } catch (IOException e) {
+            montoyaApi.logging().logToError("[Token Binder] Shared store lease failed: " + e.getMessage());
+        }
+        
+        try {
+            return autoFetchTokenFromSourceEndpoint();
+        } finally {
+            if (lease != null) {
+                store.releaseRefreshLease(lease);
+            }
+        }
+    }
+    
+    /**
+     * Use the shared token if it is recent enough.
+     * @return true if a fresh shared token is now the current token
+     */
+    private boolean adoptSharedToken() {
+        SharedTokenStore store = sharedTokenStore;
+        if (store == null) {
+            return false;
+        }
+        try {
+            SharedTokenStore.Entry entry = store.read();
+            if (entry == null || System.currentTimeMillis() - entry.updatedAt > sharedTokenMaxAgeMs) {
+                return false;
+            }
+            if (!entry.token.equals(currentToken)) {
+                currentToken = entry.token;
+                lastTokenFetchTime = entry.updatedAt;
+            }
+            return true;
+        } catch (IOException e) {
+            montoyaApi.logging().logToError("[Token Binder] Shared store read failed: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Publish a newly obtained token to the shared store, if enabled
+     */
+    private void shareToken(String token, long fetchedAt) {
+        SharedTokenStore store = sharedTokenStore;
+        if (store == null || token == null) {
+            return;
+        }
+        try {
+            store.publish(token, fetchedAt);
+        } catch (IOException e) {
+            montoyaApi.logging().logToError("[Token Binder] Shared store write failed: " + e.getMessage());
+        }
+    }
+    
+    private void recordSourceFetchResult(boolean success) {
+        long now = System.currentTimeMillis();
+        if (success) {
+            if (sourceBreaker.recordSuccess()) {
+                montoyaApi.logging().logToOutput("[Token Binder] Source endpoint recovered, circuit closed");
+            }
+        } else if (sourceBreaker.recordFailure(now)) {
+            montoyaApi.logging().logToError("[Token Binder] Source endpoint failing, circuit opened: " + sourceBreaker.describe(now));
+        }
+    }
+    
+    /**
+     * Extract token from response body
+     * @return true if a token was extracted
+     */
+    private boolean extractToken(HttpResponse response) {
+        return extractToken(response, true);
+    }
+    
+    /**
+     * Extract the token from a response. With logFailures off a miss is silent, for
+     * callers such as session rule macros whose responses often don't carry the token.
+     */
+    private boolean extractToken(HttpResponse response, boolean logFailures) {
+        try {
             String token = null;
+            String body = null;
             
-            // Try JSONPath-like extraction
             if (tokenPath != null && !tokenPath.isEmpty()) {
-                if (tokenPath.startsWith("$.")) {
-                    token = extractFromJson(body, tokenPath);
-                    montoyaApi.logging().logToOutput("[Token Binder] Attempting JSONPath extraction: " + tokenPath);
+                if (isResponseMetadataPath(tokenPath)) {
+                    // Header/cookie/redirect extraction never decodes the body
+                    token = extractFromResponseMetadata(response, tokenPath);
+                    if (logFailures) {
+                        montoyaApi.logging().logToOutput("[Token Binder] Attempting header extraction: " + tokenPath);
+                    }
                 } else {
-                    // Try regex extraction
-                    token = extractFromRegex(body, tokenPath);
-                    montoyaApi.logging().logToOutput("[Token Binder] Attempting regex extraction: " + tokenPath);
+                    body = response.bodyToString();
+                    if (body == null || body.isEmpty()) {
+                        if (logFailures) {
+                            montoyaApi.logging().logToOutput("[Token Binder] Response has empty body, cannot extract token");
+                        }
+                        return false;
+                    }
+                    
+                    if (tokenPath.startsWith("$.")) {
+                        // Try JSONPath-like extraction
+                        token = extractFromJson(body, tokenPath);
+                    } else {
+                        // Try regex extraction
+                        token = extractFromRegex(body, tokenPath);
+                    }
+                    if (logFailures) {
+                        montoyaApi.logging().logToOutput("[Token Binder] Attempting " +
+                            (tokenPath.startsWith("$.") ? "JSONPath" : "regex") + " extraction: " + tokenPath);
+                    }
                 }
             }
             
             if (token != null && !token.isEmpty()) {
                 currentToken = token;
                 lastTokenFetchTime = System.currentTimeMillis();
+                shareToken(token, lastTokenFetchTime);
                 montoyaApi.logging().logToOutput("[Token Binder] ✓ Token extracted successfully: " + maskToken(token));
                 montoyaApi.logging().logToOutput("[Token Binder] Token is ready to be injected into target endpoints matching: " + targetTabPattern);
-                if (configPanel != null) {
-                    SwingUtilities.invokeLater(() -> configPanel.updateTokenStatus());
-                }
-            } else {
+                return true;
+            } else if (logFailures) {
                 montoyaApi.logging().logToError("[Token Binder] Failed to extract token. Check token path: " + tokenPath);
-                montoyaApi.logging().logToError("[Token Binder] Response body preview: " + body.substring(0, Math.min(200, body.length())));
+                if (body != null) {
+                    montoyaApi.logging().logToError("[Token Binder] Response body preview: " + body.substring(0, Math.min(200, body.length())));
+                }
             }
         } catch (Exception e) {
             montoyaApi.logging().logToError("[Token Binder] Error processing response: " + e.getMessage());
             e.printStackTrace();
         }
+        return false;
+    }
+    
+    /**
+     * Extract a value from a response.
+     * Header, cookie and redirect paths read Montoya's parsed headers and skip the body entirely.
+     */
+    private String extractValue(HttpResponse response, String path) {
+        if (response == null || path == null || path.isEmpty()) {
+            return null;
+        }
+        if (isResponseMetadataPath(path)) {
+            return extractFromResponseMetadata(response, path);
+        }
+        return extractValue(response.bodyToString(), path);
+    }
+    
+    private boolean isResponseMetadataPath(String path) {
+        return path.startsWith(HEADER_PATH_PREFIX) || path.startsWith(COOKIE_PATH_PREFIX) || path.startsWith(LOCATION_PATH_PREFIX);
+    }
+    
+    /**
+     * Extract from response headers:
+     * - header:Name or header:Name:regex (e.g. header:Authorization:Bearer (.+))
+     * - cookie:Name (from Set-Cookie)
+     * - location:param (from the Location fragment or query, e.g. implicit flow redirects)
+     */
+    private String extractFromResponseMetadata(HttpResponse response, String path) {
+        try {
+            if (path.startsWith(HEADER_PATH_PREFIX)) {
+                String spec = path.substring(HEADER_PATH_PREFIX.length());
+                int separator = spec.indexOf(':');
+                String name = separator < 0 ? spec.trim() : spec.substring(0, separator).trim();
+                String value = response.headerValue(name);
+                if (value == null || separator < 0) {
+                    return value != null ? value.trim() : null;
+                }
+                return extractFromRegex(value, spec.substring(separator + 1));
+            }
+            
+            if (path.startsWith(COOKIE_PATH_PREFIX)) {
+                String name = path.substring(COOKIE_PATH_PREFIX.length()).trim();
+                for (Cookie cookie : response.cookies()) {
+                    if (cookie.name().equals(name)) {
+                        return cookie.value();
+                    }
+                }
+                return null;
+            }
+            
+            if (path.startsWith(LOCATION_PATH_PREFIX)) {
+                String name = path.substring(LOCATION_PATH_PREFIX.length()).trim();
+                String location = response.headerValue("Location");
+                if (location == null) {
+                    return null;
+                }
+                // Fragment first (implicit flow), then the query (e.g. authorization code)
+                int hash = location.indexOf('#');
+                String beforeFragment = hash >= 0 ? location.substring(0, hash) : location;
+                int query = beforeFragment.indexOf('?');
+                String value = hash >= 0 ? findParameter(location.substring(hash + 1), name) : null;
+                if (value == null && query >= 0) {
+                    value = findParameter(beforeFragment.substring(query + 1), name);
+                }
+                return value;
+            }
+        } catch (Exception e) {
+            montoyaApi.logging().logToError("[Token Binder] Header extraction error: " + e.getMessage());
+        }
+        return null;
+    }
+    
+    /**
+     * Find a URL-decoded parameter in an a=1&b=2 string
+     */
+    private static String findParameter(String params, String name) {
+        for (String pair : params.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return java.net.URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Extract a value from a response body using a JSONPath-like path or a regex
+     */
+    private String extractValue(String body, String path) {
+        if (body == null || body.isEmpty() || path == null || path.isEmpty()) {
+            return null;
+        }
+        return path.startsWith("$.") ? extractFromJson(body, path) : extractFromRegex(body, path);
     }
     
     /**
@@ -357,19 +1357,18 @@ public class Extension implements BurpExtension, HttpHandler {
     private HttpRequest injectToken(HttpRequest request) {
         try {
             HttpRequest modifiedRequest = request;
-            String formattedToken = tokenFormat.replace("{token}", currentToken);
+            InjectionPlan plan = currentInjectionPlan();
             
-            switch (injectionLocation) {
+            switch (plan.location) {
                 case HEADER:
                     // Remove existing header and add new one
-                    modifiedRequest = request.withRemovedHeader(injectionKey)
-                        .withAddedHeader(injectionKey, formattedToken);
+                    modifiedRequest = request.withRemovedHeader(plan.key)
+                        .withAddedHeader(plan.header);
                     break;
                     
                 case QUERY_PARAM:
                     // Add or replace query parameter
-                    HttpParameter param = HttpParameter.parameter(injectionKey, formattedToken, HttpParameterType.URL);
-                    modifiedRequest = request.withAddedParameters(param);
+                    modifiedRequest = request.withAddedParameters(plan.queryParameter);
                     break;
                     
                 case BODY_JSON:
@@ -381,8 +1380,7 @@ public class Extension implements BurpExtension, HttpHandler {
                             if (!bodyStr.endsWith("{") && !bodyStr.isEmpty()) {
                                 bodyStr += ",";
                             }
-                            bodyStr += "\"" + injectionKey + "\":\"" + 
-                                formattedToken.replace("\"", "\\\"") + "\"}";
+                            bodyStr += plan.jsonField + "}";
                             modifiedRequest = request.withBody(bodyStr);
                         }
                     }
@@ -391,24 +1389,157 @@ public class Extension implements BurpExtension, HttpHandler {
                 case BODY_FORM:
                     String formBody = request.bodyToString();
                     if (formBody == null || formBody.isEmpty()) {
-                        formBody = injectionKey + "=" + java.net.URLEncoder.encode(formattedToken, StandardCharsets.UTF_8);
+                        formBody = plan.formField;
                     } else {
                         if (!formBody.endsWith("&")) {
                             formBody += "&";
                         }
-                        formBody += injectionKey + "=" + java.net.URLEncoder.encode(formattedToken, StandardCharsets.UTF_8);
+                        formBody += plan.formField;
                     }
                     modifiedRequest = request.withBody(formBody);
                     break;
+                    
+                case COOKIE:
+                    // Merge into a single Cookie header instead of adding a duplicate one
+                    StringBuilder cookies = new StringBuilder();
+                    int cookieHeaders = 0;
+                    for (HttpHeader header : request.headers()) {
+                        if (header.name().equalsIgnoreCase("Cookie")) {
+                            cookieHeaders++;
+                            for (String pair : header.value().split(";")) {
+                                String trimmed = pair.trim();
+                                int eq = trimmed.indexOf('=');
+                                String name = eq >= 0 ? trimmed.substring(0, eq).trim() : trimmed;
+                                if (!trimmed.isEmpty() && !name.equals(plan.key)) {
+                                    cookies.append(trimmed).append("; ");
+                                }
+                            }
+                        }
+                    }
+                    cookies.append(plan.cookiePair);
+                    for (int i = 0; i < cookieHeaders; i++) {
+                        modifiedRequest = modifiedRequest.withRemovedHeader("Cookie");
+                    }
+                    modifiedRequest = modifiedRequest.withAddedHeader("Cookie", cookies.toString());
+                    break;
             }
             
-            return modifiedRequest;
+            return resolveDynamicPlaceholders(modifiedRequest, plan);
         } catch (Exception e) {
             montoyaApi.logging().logToError("[Token Binder] Error injecting token: " + e.getMessage());
             return request;
         }
     }
     
+    /**
+     * Resolve computed placeholders in request headers once the token is in place,
+     * so signatures cover the request as it will be sent. Only the injected header is
+     * looked at unless placeholders in other headers are enabled.
+     */
+    private HttpRequest resolveDynamicPlaceholders(HttpRequest request, InjectionPlan plan) {
+        if (!resolveOtherHeaderPlaceholders) {
+            if (!plan.dynamic) {
+                return request;
+            }
+            String name = plan.location == TokenInjectionLocation.COOKIE ? "Cookie" : plan.key;
+            String value = request.headerValue(name);
+            Matcher matcher = value != null ? DYNAMIC_PLACEHOLDER.matcher(value) : null;
+            if (matcher == null || !matcher.find()) {
+                return request;
+            }
+            String resolved = resolveHeaderPlaceholders(new RequestSigningContext(request, plan.token), name, matcher);
+            return resolved != null ? request.withUpdatedHeader(name, resolved) : request;
+        }
+        
+        RequestSigningContext context = null;
+        java.util.List<HttpHeader> resolvedHeaders = null;
+        
+        for (HttpHeader header : request.headers()) {
+            String value = header.value();
+            if (value.indexOf('{') < 0) {
+                continue;
+            }
+            Matcher matcher = DYNAMIC_PLACEHOLDER.matcher(value);
+            if (!matcher.find()) {
+                continue;
+            }
+            
+            if (context == null) {
+                context = new RequestSigningContext(request, plan.token);
+                resolvedHeaders = new java.util.ArrayList<>();
+            }
+            String resolved = resolveHeaderPlaceholders(context, header.name(), matcher);
+            if (resolved != null) {
+                resolvedHeaders.add(HttpHeader.httpHeader(header.name(), resolved));
+            }
+        }
+        
+        if (resolvedHeaders == null) {
+            return request;
+        }
+        for (HttpHeader header : resolvedHeaders) {
+            request = request.withUpdatedHeader(header);
+        }
+        return request;
+    }
+    
+    /**
+     * Replace every placeholder in a header value, starting from the matcher's first match.
+     * Returns null (and logs) if one can't be computed.
+     */
+    private String resolveHeaderPlaceholders(RequestSigningContext context, String name, Matcher matcher) {
+        try {
+            StringBuilder resolved = new StringBuilder();
+            do {
+                matcher.appendReplacement(resolved, Matcher.quoteReplacement(resolvePlaceholder(context, matcher)));
+            } while (matcher.find());
+            matcher.appendTail(resolved);
+            return resolved.toString();
+        } catch (Exception e) {
+            montoyaApi.logging().logToError("[Token Binder] Could not resolve placeholders in " + name + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private String resolvePlaceholder(RequestSigningContext context, Matcher matcher) throws GeneralSecurityException {
+        switch (matcher.group(1)) {
+            case "timestamp":
+                return String.valueOf(context.timestampMillis / 1000);
+            case "timestamp_ms":
+                return String.valueOf(context.timestampMillis);
+            case "amz_date":
+                return context.amzDate();
+            case "nonce":
+                return context.nonce();
+            case "body_sha256":
+                return context.bodySha256();
+            default:
+                // {hmac:fields} (hex) or {hmac64:fields} (base64)
+                String secret = signingSecret.isEmpty() ? context.token : signingSecret;
+                Mac mac = signingKeyCache.macFor(secret, deriveDailySigningKey, context.timestampMillis);
+                byte[] signature = mac.doFinal(context.canonicalString(matcher.group(3)).getBytes(StandardCharsets.UTF_8));
+                return "hmac64".equals(matcher.group(2))
+                    ? java.util.Base64.getEncoder().encodeToString(signature)
+                    : java.util.HexFormat.of().formatHex(signature);
+        }
+    }
+    
+    /**
+     * Injection plan for the current token and configuration.
+     * Rebuilt only when the token or the injection settings change, so the
+     * per-request path is a field read plus the Montoya mutation.
+     */
+    private InjectionPlan currentInjectionPlan() {
+        String token = currentToken;
+        int configVersion = injectionConfigVersion;
+        InjectionPlan plan = injectionPlan;
+        if (plan == null || plan.token != token || plan.configVersion != configVersion) {
+            plan = new InjectionPlan(token, configVersion, injectionLocation, injectionKey, tokenFormat);
+            injectionPlan = plan;
+        }
+        return plan;
+    }
+    
     /**
      * Check if URL matches pattern
      */
@@ -447,9 +1578,45 @@ public class Extension implements BurpExtension, HttpHandler {
         return token.substring(0, 4) + "..." + token.substring(token.length() - 4);
     }
     
+    private static TokenInjectionLocation parseInjectionLocation(String injectionLocation) {
+        switch (injectionLocation.toLowerCase()) {
+            case "query":
+            case "query_param":
+                return TokenInjectionLocation.QUERY_PARAM;
+            case "body_json":
+            case "json":
+                return TokenInjectionLocation.BODY_JSON;
+            case "body_form":
+            case "form":
+                return TokenInjectionLocation.BODY_FORM;
+            case "cookie":
+                return TokenInjectionLocation.COOKIE;
+            case "header":
+            default:
+                return TokenInjectionLocation.HEADER;
+        }
+    }
+    
+    /**
+     * Computed placeholders are only resolved in headers (including Cookie), so reject them
+     * for other locations instead of sending them literally.
+     */
+    private static void checkTokenFormat(TokenInjectionLocation location, String tokenFormat) {
+        if (location == TokenInjectionLocation.HEADER || location == TokenInjectionLocation.COOKIE || tokenFormat == null) {
+            return;
+        }
+        Matcher matcher = DYNAMIC_PLACEHOLDER.matcher(tokenFormat);
+        if (matcher.find()) {
+            throw new IllegalArgumentException("Token Format placeholder " + matcher.group() +
+                " is only supported for Header and Cookie injection");
+        }
+    }
+    
     // Configuration methods
     public void configure(String sourceTab, String targetTab, String tokenPath,
                          String injectionLocation, String injectionKey, String tokenFormat) {
+        TokenInjectionLocation location = parseInjectionLocation(injectionLocation);
+        checkTokenFormat(location, tokenFormat);
         this.sourceTabPattern = sourceTab;
         this.targetTabPattern = targetTab;
         this.tokenPath = tokenPath;
@@ -466,25 +1633,8 @@ public class Extension implements BurpExtension, HttpHandler {
             }
         }
 
-        switch (injectionLocation.toLowerCase()) {
-            case "header":
-                this.injectionLocation = TokenInjectionLocation.HEADER;
-                break;
-            case "query":
-            case "query_param":
-                this.injectionLocation = TokenInjectionLocation.QUERY_PARAM;
-                break;
-            case "body_json":
-            case "json":
-                this.injectionLocation = TokenInjectionLocation.BODY_JSON;
-                break;
-            case "body_form":
-            case "form":
-                this.injectionLocation = TokenInjectionLocation.BODY_FORM;
-                break;
-            default:
-                this.injectionLocation = TokenInjectionLocation.HEADER;
-        }
+        this.injectionLocation = location;
+        injectionConfigVersion++;
         
         montoyaApi.logging().logToOutput("[Token Binder] Configuration updated (URL Patterns):");
         montoyaApi.logging().logToOutput("  Source Tab: " + sourceTabPattern);
@@ -504,6 +1654,8 @@ public class Extension implements BurpExtension, HttpHandler {
      */
     public void configureWithRepeaterTabIds(int sourceRepeaterTabId, String targetRepeaterTabIdsStr, String tokenPath,
                                            String injectionLocation, String injectionKey, String tokenFormat) {
+        TokenInjectionLocation location = parseInjectionLocation(injectionLocation);
+        checkTokenFormat(location, tokenFormat);
         this.sourceRepeaterTabId = sourceRepeaterTabId;
         this.tokenPath = tokenPath;
         this.injectionKey = injectionKey;
@@ -524,48 +1676,191 @@ public class Extension implements BurpExtension, HttpHandler {
                 }
             }
         }
-        
-        // Keep backward compatibility
-        if (!this.targetRepeaterTabIds.isEmpty()) {
-            this.targetRepeaterTabId = this.targetRepeaterTabIds.get(0);
-        }
-        
-        switch (injectionLocation.toLowerCase()) {
-            case "header":
-                this.injectionLocation = TokenInjectionLocation.HEADER;
-                break;
-            case "query":
-            case "query_param":
-                this.injectionLocation = TokenInjectionLocation.QUERY_PARAM;
-                break;
-            case "body_json":
-            case "json":
-                this.injectionLocation = TokenInjectionLocation.BODY_JSON;
-                break;
-            case "body_form":
-            case "form":
-                this.injectionLocation = TokenInjectionLocation.BODY_FORM;
-                break;
-            default:
-                this.injectionLocation = TokenInjectionLocation.HEADER;
-        }
-        
-        montoyaApi.logging().logToOutput("[Token Binder] Configuration updated (Repeater Tab IDs):");
-        montoyaApi.logging().logToOutput("  Source Repeater Tab ID: " + sourceRepeaterTabId);
-        montoyaApi.logging().logToOutput("  Target Repeater Tab IDs: " + this.targetRepeaterTabIds);
-        montoyaApi.logging().logToOutput("  Token Path: " + tokenPath);
-        montoyaApi.logging().logToOutput("  Injection: " + injectionLocation + " -> " + injectionKey);
+        
+        // Keep backward compatibility
+        if (!this.targetRepeaterTabIds.isEmpty()) {
+            this.targetRepeaterTabId = this.targetRepeaterTabIds.get(0);
+        }
+        
+        this.injectionLocation = location;
+        injectionConfigVersion++;
+        
+        montoyaApi.logging().logToOutput("[Token Binder] Configuration updated (Repeater Tab IDs):");
+        montoyaApi.logging().logToOutput("  Source Repeater Tab ID: " + sourceRepeaterTabId);
+        montoyaApi.logging().logToOutput("  Target Repeater Tab IDs: " + this.targetRepeaterTabIds);
+        montoyaApi.logging().logToOutput("  Token Path: " + tokenPath);
+        montoyaApi.logging().logToOutput("  Injection: " + injectionLocation + " -> " + injectionKey);
+    }
+    
+    public String getCurrentToken() {
+        return currentToken;
+    }
+    
+    public void clearToken() {
+        currentToken = null;
+        lastTokenFetchTime = 0;
+        tabTokens.clear();
+        for (SourceStep step : authChainSteps) {
+            step.invalidate();
+        }
+        montoyaApi.logging().logToOutput("[Token Binder] Token cleared");
+    }
+    
+    /**
+     * Enable or disable the token store shared with other Burp instances on this host
+     */
+    public void configureSharedTokenStore(boolean enabled, String path, long maxAgeSeconds) throws IOException {
+        sharedTokenMaxAgeMs = Math.max(0, maxAgeSeconds) * 1000;
+        String storePath = path == null || path.trim().isEmpty() ? DEFAULT_SHARED_STORE_PATH : path.trim();
+        
+        // Keep the open store when nothing changed: closing it would drop a refresh lease
+        // held by an in-flight fetch and let another instance start its own login
+        SharedTokenStore current = sharedTokenStore;
+        if (enabled && current != null && current.getPath().equals(Paths.get(storePath))) {
+            return;
+        }
+        
+        closeSharedTokenStore();
+        if (!enabled) {
+            return;
+        }
+        
+        sharedTokenStore = new SharedTokenStore(Paths.get(storePath));
+        montoyaApi.logging().logToOutput("[Token Binder] Shared token store enabled: " + storePath +
+            " (tokens reused for " + maxAgeSeconds + "s)");
+        if (!sharedTokenStore.hasPosixPermissions()) {
+            montoyaApi.logging().logToOutput("[Token Binder] Warning: filesystem does not support POSIX permissions, " +
+                "shared token file access is not restricted to the current user");
+        }
+        adoptSharedToken();
+    }
+    
+    private void extensionUnloaded() {
+        if (configPanel != null) {
+            configPanel.dispose();
+        }
+        closeSharedTokenStore();
+    }
+    
+    private void closeSharedTokenStore() {
+        SharedTokenStore store = sharedTokenStore;
+        sharedTokenStore = null;
+        if (store != null) {
+            store.close();
+            montoyaApi.logging().logToOutput("[Token Binder] Shared token store closed: " + store.getPath());
+        }
+    }
+    
+    public String getDefaultSharedStorePath() {
+        return DEFAULT_SHARED_STORE_PATH;
+    }
+    
+    /**
+     * Configure the key used by {hmac:...} placeholders
+     * @param secret Signing secret, blank to sign with the current token
+     * @param daily Derive a per-day key from the secret (SigV4 style date scope)
+     * @param otherHeaders Also resolve placeholders in headers other than the injected one
+     */
+    public void configureSigning(String secret, boolean daily, boolean otherHeaders) {
+        this.signingSecret = secret != null ? secret : "";
+        this.deriveDailySigningKey = daily;
+        this.resolveOtherHeaderPlaceholders = otherHeaders;
+        montoyaApi.logging().logToOutput("[Token Binder] Signing key: " + (signingSecret.isEmpty() ? "current token" : "configured secret") +
+            (daily ? " (derived per day)" : "") + (otherHeaders ? ", placeholders resolved in all headers" : ""));
+    }
+    
+    /**
+     * Current state of the token and each auth chain step, for the dashboard.
+     * Runs on the EDT every UI frame. Token, step and stats state written by fetch threads
+     * is volatile or synchronized; the binding labels come from configuration fields,
+     * which are only written on the EDT by applyConfiguration.
+     */
+    private java.util.List<BindingSnapshot> snapshotBindings() {
+        long now = System.currentTimeMillis();
+        java.util.List<BindingSnapshot> rows = new java.util.ArrayList<>();
+        
+        String token = currentToken;
+        String targets = useRepeaterTabIds ? "Tabs " + targetRepeaterTabIds : targetTabPattern;
+        String source = !authChainSteps.isEmpty() ? "auth chain"
+            : useRepeaterTabIds ? "Tab " + sourceRepeaterTabId : sourceTabPattern;
+        boolean breakerClosed = sourceBreaker.isClosed();
+        int failures = sourceRefreshStats.getConsecutiveFailures();
+        String status = !breakerClosed ? "Circuit " + sourceBreaker.describe(now)
+            : failures > 0 ? "Failing (" + failures + ")"
+            : token == null ? "No token" : "OK";
+        String binding = source == null || source.isEmpty() ? "Token (not configured)" : "Token: " + source + " → " + targets;
+        rows.add(new BindingSnapshot(binding, token != null ? maskToken(token) : "",
+            token != null ? lastTokenFetchTime : 0, token != null ? tokenExpiry(token) : 0,
+            sourceRefreshStats.getLastLatencyMs(), sourceRefreshStats.getRefreshCount(), status, !breakerClosed || failures > 0));
+        
+        java.util.List<SourceStep> steps = authChainSteps;
+        for (int i = 0; i < steps.size(); i++) {
+            SourceStep step = steps.get(i);
+            String value = step.cachedValue;
+            long fetchedAt = step.fetchedAt;
+            int stepFailures = step.stats.getConsecutiveFailures();
+            String stepStatus = step.template == null ? "Not captured"
+                : stepFailures > 0 ? "Failing (" + stepFailures + ")"
+                : value == null ? "Not fetched"
+                : step.isValid(now) ? "Cached" : "Expired";
+            rows.add(new BindingSnapshot("  Step " + (i + 1) + ": " + step.name, value != null ? maskToken(value) : "",
+                value != null ? fetchedAt : 0, value != null && step.ttlMillis > 0 ? fetchedAt + step.ttlMillis : 0,
+                step.stats.getLastLatencyMs(), step.stats.getRefreshCount(), stepStatus, stepFailures > 0));
+        }
+        return rows;
+    }
+    
+    /**
+     * Expiry from the token's JWT "exp" claim, 0 if it isn't a JWT.
+     * Cached per token so the dashboard doesn't decode it on every frame.
+     */
+    private synchronized long tokenExpiry(String token) {
+        if (token != expiryToken) {
+            expiryToken = token;
+            expiryMillis = 0;
+            String[] parts = token.split("\\.");
+            if (parts.length == 3) {
+                try {
+                    String payload = new String(java.util.Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+                    Matcher matcher = Pattern.compile("\"exp\"\\s*:\\s*(\\d+)").matcher(payload);
+                    if (matcher.find()) {
+                        expiryMillis = Long.parseLong(matcher.group(1)) * 1000;
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // Not base64url / not a JWT
+                }
+            }
+        }
+        return expiryMillis;
     }
     
-    public String getCurrentToken() {
-        return currentToken;
+    public String getSourceBreakerStatus() {
+        return sourceBreaker.describe(System.currentTimeMillis());
     }
     
-    public void clearToken() {
-        currentToken = null;
-        lastTokenFetchTime = 0;
-        tabTokens.clear();
-        montoyaApi.logging().logToOutput("[Token Binder] Token cleared");
+    public boolean isSourceBreakerClosed() {
+        return sourceBreaker.isClosed();
+    }
+    
+    public void setSourceFailureThreshold(int threshold) {
+        sourceBreaker.setFailureThreshold(threshold);
+        montoyaApi.logging().logToOutput("[Token Binder] Source circuit opens after " + sourceBreaker.getFailureThreshold() + " consecutive failures");
+    }
+    
+    public void resetSourceBreaker() {
+        sourceBreaker.reset();
+        montoyaApi.logging().logToOutput("[Token Binder] Source circuit breaker reset");
+    }
+    
+    public boolean isSessionRulesOnly() {
+        return sessionRulesOnly;
+    }
+    
+    public void setSessionRulesOnly(boolean sessionRulesOnly) {
+        this.sessionRulesOnly = sessionRulesOnly;
+        montoyaApi.logging().logToOutput("[Token Binder] " + (sessionRulesOnly
+            ? "Injecting via session handling rules only (HTTP handler injection off)"
+            : "HTTP handler injection on"));
     }
     
     // NEW: Getter for auto-fetch enabled state
@@ -582,8 +1877,13 @@ public class Extension implements BurpExtension, HttpHandler {
     /**
      * NEW: Automatically fetch token by sending a request to the source endpoint
      * This method uses the actual request captured from Repeater to ensure exact replication
+     * @return whether a fresh token was obtained, or NOT_CONFIGURED if there is nothing to replay yet
      */
-    private void autoFetchTokenFromSourceEndpoint() {
+    private FetchResult autoFetchTokenFromSourceEndpoint() {
+        if (!authChainSteps.isEmpty()) {
+            return runAuthChain();
+        }
+        
         try {
             // Check if we have a captured source request or template
             HttpRequest requestToSend = lastSourceRequest != null ? lastSourceRequest : sourceRequestTemplate;
@@ -591,7 +1891,7 @@ public class Extension implements BurpExtension, HttpHandler {
             if (requestToSend == null) {
                 montoyaApi.logging().logToOutput("[Token Binder] No source request captured yet.");
                 montoyaApi.logging().logToOutput("[Token Binder] Please send a request to your source endpoint first to establish the template.");
-                return;
+                return FetchResult.NOT_CONFIGURED;
             }
             
             montoyaApi.logging().logToOutput("[Token Binder] Auto-fetching using " + 
@@ -604,8 +1904,10 @@ public class Extension implements BurpExtension, HttpHandler {
             
             if (response.response() != null) {
                 montoyaApi.logging().logToOutput("[Token Binder] ✓ Received response from source endpoint");
-                extractToken(response.response());
-                montoyaApi.logging().logToOutput("[Token Binder] ✓ Auto-fetch complete!");
+                if (extractToken(response.response())) {
+                    montoyaApi.logging().logToOutput("[Token Binder] ✓ Auto-fetch complete!");
+                    return FetchResult.REFRESHED;
+                }
             } else {
                 montoyaApi.logging().logToError("[Token Binder] No response received from source endpoint");
             }
@@ -613,6 +1915,371 @@ public class Extension implements BurpExtension, HttpHandler {
         } catch (Exception e) {
             montoyaApi.logging().logToError("[Token Binder] Auto-fetch failed: " + e.getMessage());
         }
+        return FetchResult.FAILED;
+    }
+    
+    /**
+     * Whether auto-fetch has something to replay (a single source template or an auth chain)
+     */
+    private boolean hasAutoFetchSource() {
+        return sourceRequestTemplate != null || !authChainSteps.isEmpty();
+    }
+    
+    /**
+     * Configure a multi-step source chain.
+     * One step per line: name | URL pattern | token path | TTL seconds.
+     * The value extracted by the last step becomes the injected token.
+     * A blank spec disables the chain.
+     */
+    public void configureAuthChain(String spec) {
+        java.util.List<SourceStep> steps = new java.util.ArrayList<>();
+        java.util.Set<String> names = new java.util.HashSet<>();
+        if (spec != null) {
+            for (String line : spec.split("\\R")) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\|");
+                if (parts.length != 4) {
+                    throw new IllegalArgumentException("Auth chain step must be 'name | URL pattern | token path | TTL seconds': " + line);
+                }
+                String name = parts[0].trim();
+                String urlPattern = parts[1].trim();
+                String extractPath = parts[2].trim();
+                if (name.isEmpty() || urlPattern.isEmpty() || extractPath.isEmpty()) {
+                    throw new IllegalArgumentException("Auth chain step has an empty field: " + line);
+                }
+                if (!names.add(name)) {
+                    throw new IllegalArgumentException("Duplicate auth chain step name: " + name);
+                }
+                long ttlSeconds;
+                try {
+                    ttlSeconds = Long.parseLong(parts[3].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Auth chain step TTL must be a number of seconds: " + line);
+                }
+                steps.add(new SourceStep(name, urlPattern, extractPath, ttlSeconds * 1000));
+            }
+        }
+        
+        synchronized (authChainLock) {
+            // Keep captured templates and cached values of steps whose definition didn't change
+            Map<String, SourceStep> existing = new HashMap<>();
+            for (SourceStep step : authChainSteps) {
+                existing.put(step.name, step);
+            }
+            for (int i = 0; i < steps.size(); i++) {
+                SourceStep previous = existing.get(steps.get(i).name);
+                if (previous != null && previous.sameDefinition(steps.get(i))) {
+                    steps.set(i, previous);
+                }
+            }
+            authChainSteps.clear();
+            authChainSteps.addAll(steps);
+        }
+        
+        if (steps.isEmpty()) {
+            montoyaApi.logging().logToOutput("[Token Binder] Auth chain disabled");
+            return;
+        }
+        montoyaApi.logging().logToOutput("[Token Binder] Auth chain configured with " + steps.size() + " step(s):");
+        for (SourceStep step : steps) {
+            montoyaApi.logging().logToOutput("  " + step.name + ": " + step.urlPattern + " -> " + step.extractPath +
+                " (TTL " + (step.ttlMillis / 1000) + "s)");
+        }
+        montoyaApi.logging().logToOutput("[Token Binder] Send each step once from Repeater to capture it.");
+    }
+    
+    /**
+     * Capture a Repeater response as the template of the auth chain step it belongs to.
+     * Returns true if the response matched a step.
+     */
+    private boolean captureAuthChainStep(HttpResponseReceived responseReceived) {
+        String url = responseReceived.initiatingRequest().url();
+        java.util.List<SourceStep> steps = authChainSteps;
+        
+        for (int i = 0; i < steps.size(); i++) {
+            SourceStep step = steps.get(i);
+            if (!matchesPattern(url, step.urlPattern)) {
+                continue;
+            }
+            
+            String value = extractValue(responseReceived, step.extractPath);
+            if (value == null || value.isEmpty()) {
+                montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] No value found for step '" + step.name + "' in response from: " + url);
+                return true;
+            }
+            
+            synchronized (authChainLock) {
+                Map<String, String> inputs = new HashMap<>();
+                for (int j = 0; j < i; j++) {
+                    SourceStep previous = steps.get(j);
+                    if (previous.cachedValue != null) {
+                        inputs.put(previous.name, previous.cachedValue);
+                    }
+                }
+                step.template = responseReceived.initiatingRequest();
+                step.capturedInputs = inputs;
+                step.store(value, System.currentTimeMillis());
+                montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] ✓ Step '" + step.name + "' captured: " + maskToken(value));
+                
+                if (i == steps.size() - 1) {
+                    publishChainToken(step);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Refresh the token through the auth chain.
+     * Steps whose cached values are still valid are skipped, so most refreshes only
+     * replay the last step. If a partial replay fails, the whole chain is retried once.
+     */
+    private FetchResult runAuthChain() {
+        synchronized (authChainRefreshLock) {
+            // Work on a copy so reconfiguring or capturing steps never waits on the network
+            java.util.List<SourceStep> steps;
+            synchronized (authChainLock) {
+                steps = java.util.List.copyOf(authChainSteps);
+            }
+            if (steps.isEmpty()) {
+                return FetchResult.NOT_CONFIGURED;
+            }
+            
+            long now = System.currentTimeMillis();
+            SourceStep last = steps.get(steps.size() - 1);
+            if (last.isValid(now)) {
+                publishChainToken(last);
+                montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] Cached token still valid, no request needed");
+                return FetchResult.CACHED;
+            }
+            
+            // Every step has to be captured before the chain can be replayed
+            for (SourceStep step : steps) {
+                if (step.template == null) {
+                    montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] Step '" + step.name + "' not captured yet. Send it once from Repeater: " + step.urlPattern);
+                    return FetchResult.NOT_CONFIGURED;
+                }
+            }
+            
+            // Resume from the first step whose cached value has expired
+            int start = 0;
+            while (start < steps.size() && steps.get(start).isValid(now)) {
+                start++;
+            }
+            
+            if (runAuthChainFrom(steps, start)) {
+                return FetchResult.REFRESHED;
+            }
+            if (start > 0) {
+                montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] Partial refresh failed, replaying the full chain...");
+                for (SourceStep step : steps) {
+                    step.invalidate();
+                }
+                return runAuthChainFrom(steps, 0) ? FetchResult.REFRESHED : FetchResult.FAILED;
+            }
+            return FetchResult.FAILED;
+        }
+    }
+    
+    private boolean runAuthChainFrom(java.util.List<SourceStep> steps, int start) {
+        for (int i = start; i < steps.size(); i++) {
+            SourceStep step = steps.get(i);
+            if (step.template == null) {
+                montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] Step '" + step.name + "' not captured yet. Send it once from Repeater: " + step.urlPattern);
+                return false;
+            }
+            
+            try {
+                HttpRequest request = bindStepInputs(steps, i);
+                montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] Running step " + (i + 1) + "/" + steps.size() +
+                    " '" + step.name + "': " + request.method() + " " + request.url());
+                
+                long started = System.currentTimeMillis();
+                burp.api.montoya.http.message.HttpRequestResponse response = montoyaApi.http().sendRequest(request);
+                String value = extractValue(response.response(), step.extractPath);
+                long finished = System.currentTimeMillis();
+                step.stats.record(value != null && !value.isEmpty(), finished - started);
+                if (value == null || value.isEmpty()) {
+                    montoyaApi.logging().logToError("[Token Binder] [CHAIN] Step '" + step.name + "' returned no value for: " + step.extractPath);
+                    step.invalidate();
+                    return false;
+                }
+                step.store(value, finished);
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("[Token Binder] [CHAIN] Step '" + step.name + "' failed: " + e.getMessage());
+                step.stats.record(false, -1);
+                step.invalidate();
+                return false;
+            }
+        }
+        
+        publishChainToken(steps.get(steps.size() - 1));
+        montoyaApi.logging().logToOutput("[Token Binder] [CHAIN] ✓ Chain refreshed from step " + (start + 1) + ": " + maskToken(currentToken));
+        return true;
+    }
+    
+    /**
+     * Rebuild a step request with fresh values from the steps before it.
+     * Supports explicit {{stepName}} placeholders anywhere in the path, headers or body.
+     * Values seen when the step was captured are only replaced where they make up a whole
+     * header, parameter or JSON string value, and only if they are long enough not to
+     * collide with unrelated bytes.
+     */
+    private HttpRequest bindStepInputs(java.util.List<SourceStep> steps, int index) {
+        SourceStep step = steps.get(index);
+        HttpRequest template = step.template;
+        
+        Map<String, String> placeholders = new HashMap<>();
+        Map<String, String> capturedToFresh = new HashMap<>();
+        for (int j = 0; j < index; j++) {
+            SourceStep previous = steps.get(j);
+            String fresh = previous.cachedValue;
+            if (fresh == null) {
+                continue;
+            }
+            placeholders.put("{{" + previous.name + "}}", fresh);
+            String captured = step.capturedInputs.get(previous.name);
+            if (captured != null && captured.length() >= MIN_CAPTURED_VALUE_LENGTH && !captured.equals(fresh)) {
+                capturedToFresh.put(captured, fresh);
+            }
+        }
+        if (placeholders.isEmpty()) {
+            return template;
+        }
+        
+        HttpRequest request = template;
+        
+        String path = template.path();
+        if (path.contains("{{")) {
+            request = request.withPath(replacePlaceholders(path, placeholders, Extension::urlEncode));
+        }
+        
+        // Rebuild the header list in order, so repeated headers (e.g. several Cookie lines) each keep their own value
+        java.util.List<HttpHeader> boundHeaders = new java.util.ArrayList<>();
+        boolean headersChanged = false;
+        for (HttpHeader header : template.headers()) {
+            String value = header.value();
+            String bound = value.contains("{{") ? replacePlaceholders(value, placeholders, v -> v) : value;
+            String fresh = capturedToFresh.get(bound);
+            if (fresh == null) {
+                // Common "<scheme> <value>" form, e.g. Authorization: Bearer <value>
+                int space = bound.indexOf(' ');
+                String replaced = space > 0 ? capturedToFresh.get(bound.substring(space + 1)) : null;
+                if (replaced != null) {
+                    fresh = bound.substring(0, space + 1) + replaced;
+                }
+            }
+            if (fresh != null) {
+                bound = fresh;
+            }
+            if (!bound.equals(value)) {
+                boundHeaders.add(HttpHeader.httpHeader(header.name(), bound));
+                headersChanged = true;
+            } else {
+                boundHeaders.add(header);
+            }
+        }
+        if (headersChanged) {
+            request = request.withRemovedHeaders(template.headers()).withAddedHeaders(boundHeaders);
+        }
+        
+        java.util.List<HttpParameter> updatedParameters = new java.util.ArrayList<>();
+        java.util.List<String> jsonValues = new java.util.ArrayList<>();
+        for (burp.api.montoya.http.message.params.ParsedHttpParameter parameter : template.parameters()) {
+            HttpParameterType type = parameter.type();
+            String value = parameter.value();
+            if (type == HttpParameterType.JSON) {
+                if (capturedToFresh.containsKey(value)) {
+                    jsonValues.add(value);
+                }
+                continue;
+            }
+            if (type != HttpParameterType.URL && type != HttpParameterType.BODY && type != HttpParameterType.COOKIE) {
+                continue;
+            }
+            boolean encoded = type != HttpParameterType.COOKIE;
+            String decoded = encoded ? java.net.URLDecoder.decode(value, StandardCharsets.UTF_8) : value;
+            String fresh = capturedToFresh.get(decoded);
+            if (fresh != null) {
+                updatedParameters.add(HttpParameter.parameter(parameter.name(),
+                    encoded ? java.net.URLEncoder.encode(fresh, StandardCharsets.UTF_8) : fresh, type));
+            }
+        }
+        if (!updatedParameters.isEmpty()) {
+            request = request.withUpdatedParameters(updatedParameters.toArray(new HttpParameter[0]));
+        }
+        
+        // Only decode the body when it actually contains something to bind
+        ByteArray body = request.body();
+        if (!jsonValues.isEmpty() || (body.length() > 0 && body.indexOf("{{") >= 0)) {
+            // Encode placeholder values for the body they land in
+            ContentType contentType = template.contentType();
+            java.util.function.UnaryOperator<String> encoder = contentType == ContentType.URL_ENCODED ? Extension::urlEncode
+                : contentType == ContentType.JSON ? Extension::jsonEscape
+                : v -> v;
+            String bodyStr = request.bodyToString();
+            String bound = replacePlaceholders(bodyStr, placeholders, encoder);
+            for (String captured : jsonValues) {
+                bound = bound.replace("\"" + captured + "\"", "\"" + jsonEscape(capturedToFresh.get(captured)) + "\"");
+            }
+            if (!bound.equals(bodyStr)) {
+                request = request.withBody(bound);  // Also updates Content-Length
+            }
+        }
+        return request;
+    }
+    
+    private static String replacePlaceholders(String text, Map<String, String> placeholders,
+                                              java.util.function.UnaryOperator<String> encoder) {
+        for (Map.Entry<String, String> placeholder : placeholders.entrySet()) {
+            text = text.replace(placeholder.getKey(), encoder.apply(placeholder.getValue()));
+        }
+        return text;
+    }
+    
+    private static String urlEncode(String value) {
+        return java.net.URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Escape a value for use inside a JSON string literal
+     */
+    private static String jsonEscape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': escaped.append("\\\""); break;
+                case '\\': escaped.append("\\\\"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                case '\t': escaped.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+    
+    private void publishChainToken(SourceStep last) {
+        String value = last.cachedValue;
+        if (value == null) {
+            return;
+        }
+        boolean changed = !value.equals(currentToken);
+        currentToken = value;
+        lastTokenFetchTime = last.fetchedAt;
+        if (changed) {
+            shareToken(value, last.fetchedAt);
+        }
     }
     
     /**
@@ -632,6 +2299,22 @@ public class Extension implements BurpExtension, HttpHandler {
         private JCheckBox useRepeaterTabIdsCheckBox;  // NEW: Tab ID mode
         private JTextField sourceRepeaterIdField;     // NEW: Source tab ID
         private JTextField targetRepeaterIdField;     // NEW: Target tab ID
+        private JTextArea authChainArea;
+        private JTextField failureThresholdField;
+        private JCheckBox sessionRulesOnlyCheckBox;
+        private JCheckBox sharedStoreCheckBox;
+        private JTextField sharedStorePathField;
+        private JTextField sharedMaxAgeField;
+        private JPasswordField signingSecretField;
+        private JCheckBox dailySigningKeyCheckBox;
+        private JCheckBox otherHeaderPlaceholdersCheckBox;
+        private JLabel breakerStatusLabel;
+        private BindingTableModel bindingTableModel;
+        private javax.swing.Timer dashboardTimer;
+        
+        // Dashboard redraws from a snapshot at a fixed rate instead of per token event,
+        // so heavy traffic never queues work on the Event Dispatch Thread
+        private static final int DASHBOARD_FRAME_MS = 250;
         
         public TokenBinderConfigPanel(Extension extension) {
             this.extension = extension;
@@ -679,14 +2362,15 @@ public class Extension implements BurpExtension, HttpHandler {
             add(targetRepeaterIdField);
             add(Box.createVerticalStrut(5));
             
-            add(createLabel("Token Path (JSONPath or Regex):"));
+            add(createLabel("Token Path (JSONPath, Regex, header:, cookie: or location:):"));
             tokenPathField = new JTextField(30);
-            tokenPathField.setToolTipText("JSONPath like '$.token' or regex pattern like '\"token\"\\\\s*:\\\\s*\"([^\"]+)\"'");
+            tokenPathField.setToolTipText("JSONPath like '$.token', regex pattern like '\"token\"\\\\s*:\\\\s*\"([^\"]+)\"', " +
+                "'header:X-Auth-Token', 'cookie:session' or 'location:access_token'");
             add(tokenPathField);
             add(Box.createVerticalStrut(5));
             
             add(createLabel("Injection Location:"));
-            String[] locations = {"Header", "Query Parameter", "Body (JSON)", "Body (Form)"};
+            String[] locations = {"Header", "Query Parameter", "Body (JSON)", "Body (Form)", "Cookie"};
             injectionLocationCombo = new JComboBox<>(locations);
             add(injectionLocationCombo);
             add(Box.createVerticalStrut(5));
@@ -700,7 +2384,33 @@ public class Extension implements BurpExtension, HttpHandler {
             add(createLabel("Token Format (optional):"));
             tokenFormatField = new JTextField(30);
             tokenFormatField.setText("Bearer {token}");
+            tokenFormatField.setToolTipText("<html>{token} plus computed values resolved per request in headers:<br>" +
+                "{timestamp}, {timestamp_ms}, {amz_date}, {nonce}, {body_sha256},<br>" +
+                "{hmac:method,path,timestamp,nonce,body_sha256} (hex) or {hmac64:...} (base64)</html>");
             add(tokenFormatField);
+            add(Box.createVerticalStrut(5));
+            
+            add(createLabel("Signing Secret for {hmac:...} (optional, blank = use token):"));
+            signingSecretField = new JPasswordField(30);
+            add(signingSecretField);
+            dailySigningKeyCheckBox = new JCheckBox("Derive daily signing key (HMAC of UTC date, SigV4 style)");
+            add(dailySigningKeyCheckBox);
+            otherHeaderPlaceholdersCheckBox = new JCheckBox("Resolve placeholders in other request headers (e.g. X-Signature)");
+            otherHeaderPlaceholdersCheckBox.setSelected(true);
+            otherHeaderPlaceholdersCheckBox.setToolTipText("Uncheck to skip scanning every header when only the injected header uses placeholders");
+            add(otherHeaderPlaceholdersCheckBox);
+            add(Box.createVerticalStrut(5));
+            
+            add(createLabel("Auth Chain (optional, one step per line: name | URL pattern | token path | TTL seconds):"));
+            authChainArea = new JTextArea(4, 30);
+            authChainArea.setToolTipText("<html>Ordered source steps, e.g.<br>" +
+                "login | /auth/login | $.session | 1800<br>" +
+                "mfa | /auth/otp | $.mfa_token | 600<br>" +
+                "exchange | /auth/token | $.access_token | 300<br>" +
+                "Use {{name}} in a step request to reference an earlier step's value.</html>");
+            JScrollPane authChainScroll = new JScrollPane(authChainArea);
+            authChainScroll.setAlignmentX(Component.LEFT_ALIGNMENT);
+            add(authChainScroll);
             add(Box.createVerticalStrut(10));
             
             // Auto-fetch checkbox
@@ -710,6 +2420,40 @@ public class Extension implements BurpExtension, HttpHandler {
                 extension.setAutoFetchEnabled(autoFetchCheckBox.isSelected());
             });
             add(autoFetchCheckBox);
+            add(Box.createVerticalStrut(5));
+            
+            sessionRulesOnlyCheckBox = new JCheckBox("Inject via session handling rules only (skip HTTP handler)");
+            sessionRulesOnlyCheckBox.setSelected(false);
+            sessionRulesOnlyCheckBox.setToolTipText("Add the 'Token Binder: inject bound token' action to a session handling rule to choose scope and tools");
+            sessionRulesOnlyCheckBox.addActionListener(e -> {
+                extension.setSessionRulesOnly(sessionRulesOnlyCheckBox.isSelected());
+            });
+            add(sessionRulesOnlyCheckBox);
+            add(Box.createVerticalStrut(5));
+            
+            add(createLabel("Source Failure Threshold (consecutive failures before failing fast):"));
+            failureThresholdField = new JTextField(30);
+            failureThresholdField.setText("3");
+            add(failureThresholdField);
+            add(Box.createVerticalStrut(10));
+            
+            sharedStoreCheckBox = new JCheckBox("Share token with other Burp instances on this host");
+            sharedStoreCheckBox.setSelected(false);
+            add(sharedStoreCheckBox);
+            add(Box.createVerticalStrut(5));
+            
+            add(createLabel("Shared Store File:"));
+            sharedStorePathField = new JTextField(30);
+            sharedStorePathField.setText(extension.getDefaultSharedStorePath());
+            sharedStorePathField.setToolTipText("Memory-mapped file used by all instances; must be the same path in each");
+            add(sharedStorePathField);
+            add(Box.createVerticalStrut(5));
+            
+            add(createLabel("Shared Token Max Age (seconds):"));
+            sharedMaxAgeField = new JTextField(30);
+            sharedMaxAgeField.setText("30");
+            sharedMaxAgeField.setToolTipText("Reuse a token refreshed by any instance within this window instead of fetching");
+            add(sharedMaxAgeField);
             add(Box.createVerticalStrut(10));
             
             JButton applyButton = new JButton("Apply Configuration");
@@ -723,6 +2467,12 @@ public class Extension implements BurpExtension, HttpHandler {
             add(tokenStatusLabel);
             add(Box.createVerticalStrut(5));
             
+            add(createLabel("Source Endpoint Status:"));
+            breakerStatusLabel = new JLabel(extension.getSourceBreakerStatus());
+            breakerStatusLabel.setForeground(Color.GRAY);
+            add(breakerStatusLabel);
+            add(Box.createVerticalStrut(5));
+            
             JButton clearButton = new JButton("Clear Token");
             clearButton.addActionListener(e -> {
                 extension.clearToken();
@@ -730,9 +2480,52 @@ public class Extension implements BurpExtension, HttpHandler {
             });
             add(clearButton);
             
-            JButton refreshButton = new JButton("Refresh Token Status");
-            refreshButton.addActionListener(e -> updateTokenStatus());
-            add(refreshButton);
+            JButton resetBreakerButton = new JButton("Reset Source Circuit");
+            resetBreakerButton.addActionListener(e -> {
+                extension.resetSourceBreaker();
+                updateTokenStatus();
+            });
+            add(resetBreakerButton);
+            add(Box.createVerticalStrut(10));
+            
+            add(createLabel("Live Bindings:"));
+            bindingTableModel = new BindingTableModel();
+            JTable bindingTable = new JTable(bindingTableModel);
+            bindingTable.setFillsViewportHeight(true);
+            bindingTable.setDefaultRenderer(Object.class, new javax.swing.table.DefaultTableCellRenderer() {
+                @Override
+                public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                               boolean hasFocus, int row, int column) {
+                    Component cell = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                    if (!isSelected) {
+                        cell.setForeground(bindingTableModel.isFailing(row) ? Color.RED : table.getForeground());
+                    }
+                    return cell;
+                }
+            });
+            JScrollPane bindingScroll = new JScrollPane(bindingTable);
+            bindingScroll.setPreferredSize(new Dimension(700, 140));
+            bindingScroll.setAlignmentX(Component.LEFT_ALIGNMENT);
+            add(bindingScroll);
+            
+            dashboardTimer = new javax.swing.Timer(DASHBOARD_FRAME_MS, e -> refreshDashboard());
+            dashboardTimer.setCoalesce(true);
+            dashboardTimer.start();
+        }
+        
+        /**
+         * One dashboard frame: skipped entirely while the tab isn't visible
+         */
+        private void refreshDashboard() {
+            if (!isShowing()) {
+                return;
+            }
+            updateTokenStatus();
+            bindingTableModel.update(extension.snapshotBindings(), System.currentTimeMillis());
+        }
+        
+        public void dispose() {
+            SwingUtilities.invokeLater(() -> dashboardTimer.stop());
         }
         
         // NEW: Update UI visibility based on mode
@@ -769,6 +2562,20 @@ public class Extension implements BurpExtension, HttpHandler {
             }
             
             String locationValue = getLocationValue(injectionLocation);
+            String authChainSpec = authChainArea.getText().trim();
+            
+            int failureThreshold;
+            long sharedMaxAge;
+            try {
+                failureThreshold = Integer.parseInt(failureThresholdField.getText().trim());
+                sharedMaxAge = Long.parseLong(sharedMaxAgeField.getText().trim());
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, 
+                    "Source Failure Threshold and Shared Token Max Age must be numbers",
+                    "Configuration Error",
+                    JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             
             if (useTabIds) {
                 // NEW: Tab ID mode
@@ -793,13 +2600,19 @@ public class Extension implements BurpExtension, HttpHandler {
                         "Configuration Error",
                         JOptionPane.ERROR_MESSAGE);
                     return;
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(this,
+                        ex.getMessage(),
+                        "Configuration Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
             } else {
                 // Pattern mode
                 String sourceTab = sourceTabField.getText().trim();
                 String targetTab = targetTabField.getText().trim();
                 
-                if (sourceTab.isEmpty() || targetTab.isEmpty()) {
+                if ((sourceTab.isEmpty() && authChainSpec.isEmpty()) || targetTab.isEmpty()) {
                     JOptionPane.showMessageDialog(this, 
                         "Please fill in Source and Target Tab patterns",
                         "Configuration Error",
@@ -807,7 +2620,39 @@ public class Extension implements BurpExtension, HttpHandler {
                     return;
                 }
                 
-                extension.configure(sourceTab, targetTab, tokenPath, locationValue, injectionKey, tokenFormat);
+                try {
+                    extension.configure(sourceTab, targetTab, tokenPath, locationValue, injectionKey, tokenFormat);
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(this,
+                        ex.getMessage(),
+                        "Configuration Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+            }
+            
+            extension.setSourceFailureThreshold(failureThreshold);
+            extension.configureSigning(new String(signingSecretField.getPassword()), dailySigningKeyCheckBox.isSelected(),
+                otherHeaderPlaceholdersCheckBox.isSelected());
+            
+            try {
+                extension.configureAuthChain(authChainSpec);
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this,
+                    ex.getMessage(),
+                    "Configuration Error",
+                    JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            try {
+                extension.configureSharedTokenStore(sharedStoreCheckBox.isSelected(), sharedStorePathField.getText(), sharedMaxAge);
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this,
+                    "Could not open shared token store: " + ex.getMessage(),
+                    "Configuration Error",
+                    JOptionPane.ERROR_MESSAGE);
+                return;
             }
             
             JOptionPane.showMessageDialog(this,
@@ -828,6 +2673,8 @@ public class Extension implements BurpExtension, HttpHandler {
                     return "body_json";
                 case "Body (Form)":
                     return "body_form";
+                case "Cookie":
+                    return "cookie";
                 default:
                     return "header";
             }
@@ -845,6 +2692,85 @@ public class Extension implements BurpExtension, HttpHandler {
                 tokenStatusLabel.setText("No token extracted yet");
                 tokenStatusLabel.setForeground(Color.GRAY);
             }
+            
+            breakerStatusLabel.setText(extension.getSourceBreakerStatus());
+            breakerStatusLabel.setForeground(extension.isSourceBreakerClosed() ? Color.GRAY : Color.RED);
+        }
+    }
+    
+    /**
+     * Table model for the live bindings dashboard.
+     * Rows are formatted once per frame from an immutable snapshot.
+     */
+    private static class BindingTableModel extends javax.swing.table.AbstractTableModel {
+        private static final String[] COLUMNS = {"Binding", "Token", "Age", "Expires In", "Last Refresh", "Refreshes", "Status"};
+        
+        private java.util.List<BindingSnapshot> rows = java.util.List.of();
+        private long now = 0;
+        
+        void update(java.util.List<BindingSnapshot> rows, long now) {
+            boolean sameShape = rows.size() == this.rows.size();
+            this.rows = rows;
+            this.now = now;
+            if (sameShape && !rows.isEmpty()) {
+                fireTableRowsUpdated(0, rows.size() - 1);  // Keeps selection and column layout
+            } else {
+                fireTableDataChanged();
+            }
+        }
+        
+        boolean isFailing(int row) {
+            return row < rows.size() && rows.get(row).failing;
+        }
+        
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            BindingSnapshot row = rows.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return row.binding;
+                case 1:
+                    return row.value;
+                case 2:
+                    return row.fetchedAt > 0 ? formatDuration(now - row.fetchedAt) : "—";
+                case 3:
+                    if (row.expiresAt <= 0) {
+                        return "—";
+                    }
+                    return row.expiresAt > now ? formatDuration(row.expiresAt - now) : "expired";
+                case 4:
+                    return row.lastLatencyMs >= 0 ? row.lastLatencyMs + " ms" : "—";
+                case 5:
+                    return row.refreshCount;
+                default:
+                    return row.status;
+            }
+        }
+        
+        private static String formatDuration(long millis) {
+            long seconds = Math.max(0, millis) / 1000;
+            if (seconds < 60) {
+                return seconds + "s";
+            }
+            if (seconds < 3600) {
+                return String.format("%dm %02ds", seconds / 60, seconds % 60);
+            }
+            return String.format("%dh %02dm", seconds / 3600, (seconds % 3600) / 60);
         }
     }
 }
\ No newline at end of file